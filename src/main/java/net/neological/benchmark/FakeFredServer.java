@@ -0,0 +1,271 @@
+package net.neological.benchmark;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Embedded stand-in for the parts of fred.stlouisfed.org that {@code FredWebScraper} touches:
+ * a search-results page linking to series pages, series pages whose CSV link only appears after
+ * {@code #download-button} is clicked, and the CSV payloads themselves.
+ * <p>
+ * Every response is delayed by {@code latencyMillis}, and series pages and CSVs fail with
+ * HTTP 503 at {@code errorRate}. Whether a request fails depends only on the seed, the resource
+ * and how many times it has been requested before, so runs with the same seed fail the same requests
+ * whatever order the scraper makes them in. The search-results page never fails, since nothing would be
+ * scraped at all. The server records when each series page was first requested and when its CSV
+ * was served so the benchmark can derive per-series latency.
+ */
+public class FakeFredServer implements AutoCloseable {
+    private static final LocalDate FIRST_OBSERVATION = LocalDate.of(1947, 1, 1);
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final int seriesCount;
+    private final int rowsPerSeries;
+    private final int latencyMillis;
+    private final double errorRate;
+    private final long seed;
+
+    private final Map<String, Long> seriesRequestedNanos = new ConcurrentHashMap<>();
+    private final Map<String, Long> csvServedNanos = new ConcurrentHashMap<>();
+
+    private final AtomicInteger requestCount = new AtomicInteger();
+    private final AtomicInteger errorCount = new AtomicInteger();
+    private final Map<String, AtomicInteger> attemptsByResource = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor. The server listens on an ephemeral loopback port until {@link #close()} is called.
+     *
+     * @param seriesCount   number of series linked from the search-results page.
+     * @param rowsPerSeries number of monthly observations in each full CSV.
+     * @param latencyMillis artificial delay added to every response.
+     * @param errorRate     probability (0.0 - 1.0) that a series page or CSV request fails.
+     * @param seed          seed deciding which requests fail.
+     * @throws IOException if the server socket cannot be bound.
+     */
+    public FakeFredServer(int seriesCount, int rowsPerSeries, int latencyMillis, double errorRate, long seed)
+            throws IOException {
+        this.seriesCount = seriesCount;
+        this.rowsPerSeries = rowsPerSeries;
+        this.latencyMillis = latencyMillis;
+        this.errorRate = errorRate;
+        this.seed = seed;
+
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        executor = Executors.newCachedThreadPool();
+        server.setExecutor(executor);
+        server.createContext("/searchresults/", this::handleSearchResults);
+        server.createContext("/series/", this::handleSeries);
+        server.createContext("/graph/fredgraph.csv", this::handleCsv);
+        server.start();
+    }
+
+    /**
+     * @return the base URL to hand to {@code FredWebScraper.setBaseUrl}, without a trailing slash.
+     */
+    public String getBaseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    /**
+     * @return the search-results URL listing every series this server knows about.
+     */
+    public String getSearchUrl() {
+        return getBaseUrl() + "/searchresults/?st=benchmark";
+    }
+
+    /**
+     * Returns the time between the first request for each series page and the moment its CSV was
+     * served, for every series that completed.
+     *
+     * @return per-series latencies in nanoseconds, in no particular order.
+     */
+    public List<Long> getSeriesLatenciesNanos() {
+        List<Long> latencies = new ArrayList<>();
+        csvServedNanos.forEach((id, served) -> {
+            Long requested = seriesRequestedNanos.get(id);
+            if (requested != null) {
+                latencies.add(served - requested);
+            }
+        });
+        return latencies;
+    }
+
+    /**
+     * @return total number of requests answered, including injected errors.
+     */
+    public int getRequestCount() {
+        return requestCount.get();
+    }
+
+    /**
+     * @return number of requests that were answered with an injected 503.
+     */
+    public int getErrorCount() {
+        return errorCount.get();
+    }
+
+    /**
+     * @return number of series whose CSV was served successfully.
+     */
+    public int getCompletedSeriesCount() {
+        return csvServedNanos.size();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handleSearchResults(HttpExchange exchange) throws IOException {
+        StringBuilder html = new StringBuilder("<html><head><title>Search Results</title></head><body><ul>\n");
+        for (int i = 0; i < seriesCount; i++) {
+            String id = seriesId(i);
+            html.append("<li><a href=\"/series/").append(id).append("\">").append(id).append("</a></li>\n");
+        }
+        html.append("</ul></body></html>");
+
+        respond(exchange, 200, "text/html; charset=utf-8", html.toString(), null);
+    }
+
+    private void handleSeries(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        String id = path.substring(path.lastIndexOf('/') + 1);
+        if (id.isEmpty()) {
+            respond(exchange, 404, "text/plain", "Unknown series", null);
+            return;
+        }
+        seriesRequestedNanos.putIfAbsent(id, System.nanoTime());
+
+        // The CSV link is only added to the DOM once the download button is clicked, as on the real site
+        String csvHref = "/graph/fredgraph.csv?id=" + id
+                + "&cosd=" + FIRST_OBSERVATION
+                + "&coed=" + FIRST_OBSERVATION.plusMonths(Math.max(rowsPerSeries - 1, 0));
+        String html = "<html><head><title>" + id + "</title></head><body>\n"
+                + "<h1>" + id + "</h1>\n"
+                + "<button id=\"download-button\" type=\"button\">Download</button>\n"
+                + "<div id=\"download-menu\"></div>\n"
+                + "<script>\n"
+                + "document.getElementById('download-button').addEventListener('click', function () {\n"
+                + "  setTimeout(function () {\n"
+                + "    var a = document.createElement('a');\n"
+                + "    a.id = 'download-data-csv';\n"
+                + "    a.href = '" + csvHref + "';\n"
+                + "    a.textContent = 'CSV (data)';\n"
+                + "    document.getElementById('download-menu').appendChild(a);\n"
+                + "  }, 100);\n"
+                + "});\n"
+                + "</script>\n"
+                + "</body></html>";
+
+        respond(exchange, 200, "text/html; charset=utf-8", html, "series/" + id);
+    }
+
+    private void handleCsv(HttpExchange exchange) throws IOException {
+        Map<String, String> query = parseQuery(exchange.getRequestURI());
+        String id = query.get("id");
+        if (id == null || id.isEmpty()) {
+            respond(exchange, 400, "text/plain", "Missing id", null);
+            return;
+        }
+
+        LocalDate start = query.containsKey("cosd") ? LocalDate.parse(query.get("cosd")) : FIRST_OBSERVATION;
+
+        StringBuilder csv = new StringBuilder("observation_date,").append(id).append('\n');
+        for (int i = 0; i < rowsPerSeries; i++) {
+            LocalDate date = FIRST_OBSERVATION.plusMonths(i);
+            if (date.isBefore(start)) {
+                continue;
+            }
+            csv.append(date).append(',').append(String.format(Locale.ROOT, "%.3f", 100 + i * 0.25)).append('\n');
+        }
+
+        if (respond(exchange, 200, "text/csv", csv.toString(), "csv/" + id)) {
+            csvServedNanos.put(id, System.nanoTime());
+        }
+    }
+
+    /**
+     * Sends a response after the configured latency, or a 503 instead when {@code resource} is set and
+     * the error roll for this attempt at it comes up.
+     *
+     * @param resource the name errors are rolled for, or null if the response never fails.
+     * @return true if the intended response was sent, false if an error was injected.
+     */
+    private boolean respond(HttpExchange exchange, int status, String contentType, String body, String resource)
+            throws IOException {
+        requestCount.incrementAndGet();
+        try {
+            if (latencyMillis > 0) {
+                Thread.sleep(latencyMillis);
+            }
+
+            boolean fail = resource != null && shouldFail(resource);
+            if (fail) {
+                errorCount.incrementAndGet();
+                status = 503;
+                contentType = "text/plain";
+                body = "Service Unavailable";
+            }
+
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", contentType);
+            exchange.sendResponseHeaders(status, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+            return !fail;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private boolean shouldFail(String resource) {
+        if (errorRate <= 0) {
+            return false;
+        }
+        int attempt = attemptsByResource.computeIfAbsent(resource, r -> new AtomicInteger()).getAndIncrement();
+        long rollSeed = seed * 31 * 31 + resource.hashCode() * 31L + attempt;
+        return new SplittableRandom(rollSeed).nextDouble() < errorRate;
+    }
+
+    private static Map<String, String> parseQuery(URI uri) {
+        Map<String, String> params = new HashMap<>();
+        String query = uri.getQuery();
+        if (query == null) {
+            return params;
+        }
+        for (String pair : query.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0) {
+                params.put(pair.substring(0, eq), pair.substring(eq + 1));
+            }
+        }
+        return params;
+    }
+
+    private static String seriesId(int index) {
+        return String.format("BENCH%04d", index + 1);
+    }
+}
@@ -0,0 +1,278 @@
+package net.neological.benchmark;
+
+import net.neological.webscraping.specific.FredWebScraper;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * End-to-end throughput benchmark: runs {@link FredWebScraper} against a {@link FakeFredServer}
+ * and reports series per minute, per-series latency percentiles, peak resident memory of this
+ * JVM plus its browser processes, and how many browsers were launched.
+ * <p>
+ * Usage (all options optional):
+ * <pre>
+ * java -cp target/Webscrapper-1.0-SNAPSHOT.jar net.neological.benchmark.FredBenchmark \
+ *     --series=20 --rows=1000 --latency-ms=50 --error-rate=0.0 --seed=1 --runs=3 \
+ *     --report=bench.properties --baseline=baseline.properties --tolerance=0.10
+ * </pre>
+ * With {@code --baseline}, the process exits with status 1 when the measured throughput falls more
+ * than {@code --tolerance} below the baseline's, so it can gate performance regressions, and with status 2
+ * when the baseline is not a benchmark report or was recorded with different {@code --series},
+ * {@code --rows}, {@code --latency-ms}, {@code --error-rate}, {@code --seed}, {@code --runs} or {@code --timeout-ms}.
+ * <p>
+ * Memory figures are read from {@code /proc} and are only available on Linux. ChromeDriver still has
+ * to be resolvable by WebDriverManager, so run it once online (or with a cached driver) first.
+ */
+public class FredBenchmark {
+    private static final String USER_AGENT = "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/91.0.4472.124 Safari/537.36";
+    private static final long SAMPLE_INTERVAL_MILLIS = 200;
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        int seriesCount = Integer.parseInt(options.getOrDefault("series", "20"));
+        int rows = Integer.parseInt(options.getOrDefault("rows", "1000"));
+        int latencyMillis = Integer.parseInt(options.getOrDefault("latency-ms", "50"));
+        double errorRate = Double.parseDouble(options.getOrDefault("error-rate", "0.0"));
+        int runs = Integer.parseInt(options.getOrDefault("runs", "3"));
+        int timeoutMillis = Integer.parseInt(options.getOrDefault("timeout-ms", "15000"));
+        long seed = Long.parseLong(options.getOrDefault("seed", "1"));
+
+        // Recorded in the report; throughput is only comparable between runs with the same settings
+        Map<String, String> settings = new LinkedHashMap<>();
+        settings.put("series", Integer.toString(seriesCount));
+        settings.put("rows", Integer.toString(rows));
+        settings.put("latency-ms", Integer.toString(latencyMillis));
+        settings.put("error-rate", Double.toString(errorRate));
+        settings.put("runs", Integer.toString(runs));
+        settings.put("timeout-ms", Integer.toString(timeoutMillis));
+        settings.put("seed", Long.toString(seed));
+
+        List<Long> latencies = new ArrayList<>();
+        long totalElapsedNanos = 0;
+        int totalCompleted = 0;
+        int totalErrors = 0;
+        ResourceSampler sampler = new ResourceSampler();
+
+        for (int run = 1; run <= runs; run++) {
+            Path downloadFolder = Files.createTempDirectory("fred-bench-");
+            try (FakeFredServer server = new FakeFredServer(seriesCount, rows, latencyMillis, errorRate, seed)) {
+                FredWebScraper scraper = new FredWebScraper(USER_AGENT, timeoutMillis);
+                scraper.setBaseUrl(server.getBaseUrl());
+                scraper.setDownloadFolder(downloadFolder.toString());
+
+                sampler.start();
+                long start = System.nanoTime();
+                try {
+                    scraper.scrape(server.getSearchUrl());
+                } finally {
+                    long elapsed = System.nanoTime() - start;
+                    sampler.stop();
+
+                    totalElapsedNanos += elapsed;
+                    totalCompleted += server.getCompletedSeriesCount();
+                    totalErrors += server.getErrorCount();
+                    latencies.addAll(server.getSeriesLatenciesNanos());
+
+                    System.out.printf(Locale.ROOT, "Run %d/%d: %d/%d series in %.1f s (%d injected errors)%n",
+                            run, runs, server.getCompletedSeriesCount(), seriesCount,
+                            elapsed / 1e9, server.getErrorCount());
+                }
+            } finally {
+                deleteRecursively(downloadFolder);
+            }
+        }
+
+        Collections.sort(latencies);
+        double throughput = totalElapsedNanos == 0 ? 0 : totalCompleted / (totalElapsedNanos / 6e10);
+
+        Properties report = new Properties();
+        settings.forEach((name, value) -> report.setProperty("settings." + name, value));
+        report.setProperty("series.completed", Integer.toString(totalCompleted));
+        report.setProperty("series.requested", Integer.toString(seriesCount * runs));
+        report.setProperty("errors.injected", Integer.toString(totalErrors));
+        report.setProperty("throughput.seriesPerMinute", format(throughput));
+        report.setProperty("latency.p50.ms", format(percentileMillis(latencies, 50)));
+        report.setProperty("latency.p90.ms", format(percentileMillis(latencies, 90)));
+        report.setProperty("latency.p99.ms", format(percentileMillis(latencies, 99)));
+        report.setProperty("latency.max.ms", format(percentileMillis(latencies, 100)));
+        report.setProperty("memory.peakRss.mb", sampler.getPeakRssKb() < 0 ? "n/a" : format(sampler.getPeakRssKb() / 1024.0));
+        report.setProperty("browsers.launched", Integer.toString(sampler.getBrowsersLaunched()));
+        report.setProperty("browsers.peakConcurrent", Integer.toString(sampler.getPeakConcurrentBrowsers()));
+
+        System.out.println();
+        System.out.println("Series completed:      " + totalCompleted + "/" + (seriesCount * runs));
+        System.out.println("Throughput:            " + report.getProperty("throughput.seriesPerMinute") + " series/min");
+        System.out.println("Latency p50/p90/p99:   " + report.getProperty("latency.p50.ms") + " / "
+                + report.getProperty("latency.p90.ms") + " / " + report.getProperty("latency.p99.ms") + " ms");
+        System.out.println("Peak RSS (JVM+browsers): " + report.getProperty("memory.peakRss.mb") + " MB");
+        System.out.println("Browsers launched:     " + sampler.getBrowsersLaunched()
+                + " (peak " + sampler.getPeakConcurrentBrowsers() + " concurrent)");
+
+        if (options.containsKey("report")) {
+            try (Writer writer = Files.newBufferedWriter(Paths.get(options.get("report")))) {
+                report.store(writer, "FredBenchmark results");
+            }
+        }
+
+        if (options.containsKey("baseline")) {
+            Properties baseline = new Properties();
+            try (Reader reader = Files.newBufferedReader(Paths.get(options.get("baseline")))) {
+                baseline.load(reader);
+            }
+            String expectedValue = baseline.getProperty("throughput.seriesPerMinute");
+            if (expectedValue == null) {
+                System.err.println("Baseline " + options.get("baseline") + " has no throughput.seriesPerMinute;"
+                        + " pass a report written by --report");
+                System.exit(2);
+            }
+            List<String> mismatches = new ArrayList<>();
+            settings.forEach((name, value) -> {
+                String baselineValue = baseline.getProperty("settings." + name);
+                if (!value.equals(baselineValue)) {
+                    mismatches.add(name + "=" + value + " (baseline " + (baselineValue == null ? "unset" : baselineValue) + ")");
+                }
+            });
+            if (!mismatches.isEmpty()) {
+                System.err.println("Baseline " + options.get("baseline") + " was recorded with different settings: "
+                        + String.join(", ", mismatches));
+                System.exit(2);
+            }
+            double tolerance = Double.parseDouble(options.getOrDefault("tolerance", "0.10"));
+            double expected = Double.parseDouble(expectedValue);
+            double floor = expected * (1 - tolerance);
+            if (throughput < floor) {
+                System.err.println("Throughput regression: " + format(throughput) + " series/min is below "
+                        + format(floor) + " (baseline " + format(expected) + ")");
+                System.exit(1);
+            }
+            System.out.println("Throughput within " + format(tolerance * 100) + "% of baseline " + format(expected));
+        }
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Unrecognised argument: " + arg);
+            }
+            int eq = arg.indexOf('=');
+            if (eq < 0) {
+                options.put(arg.substring(2), "true");
+            } else {
+                options.put(arg.substring(2, eq), arg.substring(eq + 1));
+            }
+        }
+        return options;
+    }
+
+    private static double percentileMillis(List<Long> sortedNanos, int percentile) {
+        if (sortedNanos.isEmpty()) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile / 100.0 * sortedNanos.size()) - 1;
+        return sortedNanos.get(Math.max(0, Math.min(index, sortedNanos.size() - 1))) / 1e6;
+    }
+
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.1f", value);
+    }
+
+    private static void deleteRecursively(Path root) throws IOException {
+        try (Stream<Path> paths = Files.walk(root)) {
+            for (Path path : paths.sorted(Collections.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    /**
+     * Periodically samples this process and its descendants, tracking the peak combined resident set
+     * size and the ChromeDriver processes (one per browser session) that come and go.
+     */
+    private static class ResourceSampler {
+        private final Set<Long> driverPids = new HashSet<>();
+        private ScheduledExecutorService scheduler;
+        private long peakRssKb = -1;
+        private int peakConcurrentBrowsers;
+
+        void start() {
+            scheduler = Executors.newSingleThreadScheduledExecutor();
+            scheduler.scheduleAtFixedRate(this::sample, 0, SAMPLE_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+        }
+
+        void stop() throws InterruptedException {
+            scheduler.shutdown();
+            scheduler.awaitTermination(5, TimeUnit.SECONDS);
+        }
+
+        synchronized long getPeakRssKb() {
+            return peakRssKb;
+        }
+
+        synchronized int getBrowsersLaunched() {
+            return driverPids.size();
+        }
+
+        synchronized int getPeakConcurrentBrowsers() {
+            return peakConcurrentBrowsers;
+        }
+
+        private synchronized void sample() {
+            ProcessHandle self = ProcessHandle.current();
+            long rssKb = readRssKb(self.pid());
+            int browsers = 0;
+
+            for (ProcessHandle child : self.descendants().toList()) {
+                if (rssKb >= 0) {
+                    long childRss = readRssKb(child.pid());
+                    if (childRss > 0) {
+                        rssKb += childRss;
+                    }
+                }
+                String command = child.info().command().orElse("");
+                if (command.contains("chromedriver")) {
+                    browsers++;
+                    driverPids.add(child.pid());
+                }
+            }
+
+            peakRssKb = Math.max(peakRssKb, rssKb);
+            peakConcurrentBrowsers = Math.max(peakConcurrentBrowsers, browsers);
+        }
+
+        /**
+         * @return the VmRSS of the given process in kB, or -1 if /proc is unavailable.
+         */
+        private static long readRssKb(long pid) {
+            Path status = Paths.get("/proc", Long.toString(pid), "status");
+            try (Stream<String> lines = Files.lines(status)) {
+                return lines.filter(line -> line.startsWith("VmRSS:"))
+                        .map(line -> line.replaceAll("[^0-9]", ""))
+                        .mapToLong(Long::parseLong)
+                        .findFirst()
+                        .orElse(-1);
+            } catch (IOException | RuntimeException e) {
+                return -1;
+            }
+        }
+    }
+}
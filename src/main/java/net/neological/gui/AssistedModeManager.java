@@ -1,6 +1,7 @@
 package net.neological.gui;
 
 import io.github.bonigarcia.wdm.WebDriverManager;
+import net.neological.webscraping.SessionProfile;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.chrome.ChromeDriver;
 import org.openqa.selenium.chrome.ChromeOptions;
@@ -9,7 +10,7 @@ import java.time.Duration;
 
 /**
  * Manages the assisted mode functionality, allowing users to interact with a Chrome browser
- * and capture the final URL they navigate to.
+ * and capture the final URL they navigate to, along with the session state built up on the way.
  */
 public class AssistedModeManager {
     private WebDriver driver;
@@ -59,6 +60,25 @@ public class AssistedModeManager {
         }
     }
 
+    /**
+     * Captures the browser's cookies and the current page's local storage, so consent banners, logins
+     * and similar steps taken by hand carry over to headless fetches.
+     *
+     * @param name the name to give the profile.
+     * @return the captured profile, or null if assisted mode is not active or the capture failed
+     */
+    public SessionProfile captureSessionProfile(String name) {
+        if (!isActive || driver == null) {
+            return null;
+        }
+
+        try {
+            return SessionProfile.capture(name, driver);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
     /**
      * Stops the assisted mode and closes the browser.
      */
@@ -0,0 +1,166 @@
+package net.neological.gui;
+
+import lombok.Getter;
+import net.neological.webscraping.BrowserPool;
+import net.neological.webscraping.SessionProfile;
+import net.neological.webscraping.WebScraper;
+import net.neological.webscraping.specific.FredWebScraper;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.util.Comparator;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Runs queued {@link ScrapeJob}s on a fixed set of worker threads. Jobs start in priority order
+ * (highest first, then in submission order), and all running jobs share one {@link BrowserPool} and
+ * one budget of concurrent downloads, so a job waiting on the network leaves its browser free for others.
+ */
+public class JobScheduler implements AutoCloseable {
+    public static final String JOB_THREAD_PREFIX = "Job #";
+
+    private static final Comparator<ScrapeJob> JOB_ORDER = Comparator
+            .comparingInt(ScrapeJob::getPriority).reversed()
+            .thenComparingInt(ScrapeJob::getId);
+
+    private final PriorityBlockingQueue<ScrapeJob> queue = new PriorityBlockingQueue<>(11, JOB_ORDER);
+    private final AtomicInteger nextId = new AtomicInteger(1);
+    private final Thread[] workers;
+    private final Semaphore downloadSlots;
+    private final String userAgent;
+    private final int timeoutMillis;
+    private final Consumer<ScrapeJob> jobListener;
+
+    @Getter
+    private final BrowserPool browserPool;
+
+    /**
+     * Constructor. Worker threads start immediately and wait for jobs.
+     *
+     * @param maxBrowsers       the number of browsers shared by all jobs.
+     * @param maxDownloads      the number of file downloads allowed at once across all jobs.
+     * @param maxConcurrentJobs the number of jobs that may run at once.
+     * @param userAgent         the User-Agent every scraper presents.
+     * @param timeoutMillis     the page load timeout handed to every scraper.
+     * @param jobListener       called from worker threads whenever a job's status or progress changes.
+     */
+    public JobScheduler(int maxBrowsers, int maxDownloads, int maxConcurrentJobs,
+                        String userAgent, int timeoutMillis, Consumer<ScrapeJob> jobListener) {
+        this.browserPool = new BrowserPool(maxBrowsers);
+        this.downloadSlots = new Semaphore(maxDownloads, true);
+        this.userAgent = userAgent;
+        this.timeoutMillis = timeoutMillis;
+        this.jobListener = jobListener;
+
+        workers = new Thread[maxConcurrentJobs];
+        for (int i = 0; i < workers.length; i++) {
+            workers[i] = new Thread(this::workerLoop, "Job worker " + (i + 1));
+            workers[i].setDaemon(true);
+            workers[i].start();
+        }
+    }
+
+    /**
+     * Adds a job to the queue.
+     *
+     * @param scraperName    the display name of the scraper.
+     * @param scraperClass   the scraper to run; must have a (String userAgent, int timeoutMillis) constructor.
+     * @param url            the URL to scrape.
+     * @param downloadFolder the folder downloads are written to, for scrapers that download files.
+     * @param sessionProfile browser session state to scrape with, or null for a clean session.
+     * @param priority       higher priorities start first.
+     * @return the queued job.
+     */
+    public ScrapeJob submit(String scraperName, Class<? extends WebScraper> scraperClass,
+                            String url, String downloadFolder, SessionProfile sessionProfile, int priority) {
+        ScrapeJob job = new ScrapeJob(nextId.getAndIncrement(), scraperName, scraperClass, url, downloadFolder,
+                sessionProfile, priority);
+        queue.add(job);
+        jobListener.accept(job);
+        return job;
+    }
+
+    /**
+     * Removes a job that has not started yet.
+     *
+     * @param job the job to cancel.
+     * @return true if the job was still queued and is now cancelled, false if it had already started.
+     */
+    public boolean cancel(ScrapeJob job) {
+        if (!queue.remove(job)) {
+            return false;
+        }
+        job.markFinished(ScrapeJob.Status.CANCELLED);
+        jobListener.accept(job);
+        return true;
+    }
+
+    /**
+     * Stops the workers and quits the shared browsers. Jobs still queued are not run.
+     */
+    @Override
+    public void close() {
+        for (Thread worker : workers) {
+            worker.interrupt();
+        }
+        browserPool.close();
+    }
+
+    private void workerLoop() {
+        while (!Thread.currentThread().isInterrupted()) {
+            ScrapeJob job;
+            try {
+                job = queue.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            run(job);
+        }
+    }
+
+    private void run(ScrapeJob job) {
+        Thread thread = Thread.currentThread();
+        String workerName = thread.getName();
+        // Log lines printed while the job runs are attributed to it by thread name
+        thread.setName(JOB_THREAD_PREFIX + job.getId());
+
+        job.markStarted();
+        jobListener.accept(job);
+        try {
+            WebScraper scraper = createScraper(job);
+            scraper.scrape(job.getUrl());
+            job.markFinished(ScrapeJob.Status.COMPLETED);
+        } catch (Exception e) {
+            Throwable cause = e instanceof InvocationTargetException && e.getCause() != null ? e.getCause() : e;
+            job.setMessage(cause.getMessage() == null ? cause.toString() : cause.getMessage());
+            job.markFinished(ScrapeJob.Status.FAILED);
+            e.printStackTrace();
+        } finally {
+            thread.setName(workerName);
+            jobListener.accept(job);
+        }
+    }
+
+    private WebScraper createScraper(ScrapeJob job) throws ReflectiveOperationException {
+        // Create scraper instance using reflection
+        Constructor<? extends WebScraper> constructor = job.getScraperClass().getConstructor(String.class, int.class);
+        WebScraper scraper = constructor.newInstance(userAgent, timeoutMillis);
+
+        scraper.setBrowserPool(browserPool);
+        scraper.setSessionProfile(job.getSessionProfile());
+        scraper.setProgressListener((completed, total) -> {
+            job.updateProgress(completed, total);
+            jobListener.accept(job);
+        });
+
+        // Set download folder and shared download budget if it's a FileDownloader
+        if (scraper instanceof FredWebScraper fredScraper) {
+            fredScraper.setDownloadFolder(job.getDownloadFolder());
+            fredScraper.setDownloadSlots(downloadSlots);
+        }
+        return scraper;
+    }
+}
@@ -0,0 +1,78 @@
+package net.neological.gui;
+
+import javax.swing.table.AbstractTableModel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Table model listing every submitted {@link ScrapeJob} with its status, progress and throughput.
+ * Must only be used from the Swing event dispatch thread.
+ */
+public class JobTableModel extends AbstractTableModel {
+    private static final String[] COLUMNS = {"#", "Scraper", "URL", "Priority", "Status", "Progress", "Items/min"};
+
+    private final List<ScrapeJob> jobs = new ArrayList<>();
+
+    /**
+     * Adds the job if it is new, otherwise refreshes its row.
+     *
+     * @param job the job whose state changed.
+     */
+    public void jobUpdated(ScrapeJob job) {
+        int row = jobs.indexOf(job);
+        if (row < 0) {
+            jobs.add(job);
+            fireTableRowsInserted(jobs.size() - 1, jobs.size() - 1);
+        } else {
+            fireTableRowsUpdated(row, row);
+        }
+    }
+
+    /**
+     * Refreshes every row, e.g. so running jobs' throughput keeps moving between progress updates.
+     */
+    public void refreshRunning() {
+        for (int row = 0; row < jobs.size(); row++) {
+            if (jobs.get(row).getStatus() == ScrapeJob.Status.RUNNING) {
+                fireTableRowsUpdated(row, row);
+            }
+        }
+    }
+
+    public ScrapeJob getJobAt(int row) {
+        return jobs.get(row);
+    }
+
+    @Override
+    public int getRowCount() {
+        return jobs.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMNS.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMNS[column];
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        ScrapeJob job = jobs.get(row);
+        return switch (column) {
+            case 0 -> job.getId();
+            case 1 -> job.getScraperName();
+            case 2 -> job.getUrl();
+            case 3 -> job.getPriority();
+            case 4 -> job.getMessage().isEmpty() ? job.getStatus() : job.getStatus() + ": " + job.getMessage();
+            case 5 -> job.getTotal() == 0 ? "" : job.getCompleted() + " / " + job.getTotal();
+            case 6 -> job.getStatus() == ScrapeJob.Status.QUEUED || job.getStatus() == ScrapeJob.Status.CANCELLED
+                    ? ""
+                    : String.format(Locale.ROOT, "%.1f", job.getItemsPerMinute());
+            default -> "";
+        };
+    }
+}
@@ -0,0 +1,89 @@
+package net.neological.gui;
+
+import lombok.Getter;
+import lombok.Setter;
+import net.neological.webscraping.SessionProfile;
+import net.neological.webscraping.WebScraper;
+
+/**
+ * A single scraper/URL/folder submission waiting in, or running from, the {@link JobScheduler} queue.
+ * The progress fields are written by the worker thread running the job and read by the GUI.
+ */
+@Getter
+public class ScrapeJob {
+
+    /**
+     * Lifecycle of a job in the queue.
+     */
+    public enum Status {
+        QUEUED, RUNNING, COMPLETED, FAILED, CANCELLED
+    }
+
+    private final int id;
+    private final String scraperName;
+    private final Class<? extends WebScraper> scraperClass;
+    private final String url;
+    private final String downloadFolder;
+    private final SessionProfile sessionProfile;
+    private final int priority;
+
+    @Setter
+    private volatile Status status = Status.QUEUED;
+
+    @Setter
+    private volatile String message = "";
+
+    private volatile int completed;
+    private volatile int total;
+    private volatile long startedNanos;
+    private volatile long finishedNanos;
+
+    /**
+     * Constructor.
+     *
+     * @param id             sequence number, also used to keep equal-priority jobs in submission order.
+     * @param scraperName    the display name of the scraper.
+     * @param scraperClass   the scraper to instantiate when the job runs.
+     * @param url            the URL to scrape.
+     * @param downloadFolder the folder downloads are written to, for scrapers that download files.
+     * @param sessionProfile browser session state to scrape with, or null for a clean session.
+     * @param priority       higher priorities start first.
+     */
+    public ScrapeJob(int id, String scraperName, Class<? extends WebScraper> scraperClass,
+                     String url, String downloadFolder, SessionProfile sessionProfile, int priority) {
+        this.id = id;
+        this.scraperName = scraperName;
+        this.scraperClass = scraperClass;
+        this.url = url;
+        this.downloadFolder = downloadFolder;
+        this.sessionProfile = sessionProfile;
+        this.priority = priority;
+    }
+
+    void markStarted() {
+        startedNanos = System.nanoTime();
+        status = Status.RUNNING;
+    }
+
+    void markFinished(Status finalStatus) {
+        finishedNanos = System.nanoTime();
+        status = finalStatus;
+    }
+
+    void updateProgress(int completed, int total) {
+        this.completed = completed;
+        this.total = total;
+    }
+
+    /**
+     * @return items (e.g. series) processed per minute since the job started, or 0 if it has not started.
+     */
+    public double getItemsPerMinute() {
+        if (startedNanos == 0) {
+            return 0;
+        }
+        long end = finishedNanos != 0 ? finishedNanos : System.nanoTime();
+        double minutes = (end - startedNanos) / 6e10;
+        return minutes <= 0 ? 0 : completed / minutes;
+    }
+}
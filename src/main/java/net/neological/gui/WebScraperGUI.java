@@ -1,31 +1,55 @@
 package net.neological.gui;
 
 import net.neological.webscraping.FileDownloader;
+import net.neological.webscraping.SessionProfile;
 import net.neological.webscraping.WebScraper;
 import net.neological.webscraping.specific.FredWebScraper;
 
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
 import java.io.File;
-import java.lang.reflect.Constructor;
+import java.io.IOException;
+import java.net.URI;
 import java.util.HashMap;
 import java.util.Map;
 
 public class WebScraperGUI extends JFrame {
+    private static final String USER_AGENT = "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/91.0.4472.124 Safari/537.36";
+    private static final int TIMEOUT_MILLIS = 15_000;
+
+    // Shared resources for queued jobs: browsers are the bottleneck, so run one more job than there are
+    // browsers to keep them busy while a job is between pages, and allow two downloads per browser
+    private static final int MAX_BROWSERS = Math.max(2, Runtime.getRuntime().availableProcessors() / 2);
+    private static final int MAX_CONCURRENT_JOBS = MAX_BROWSERS + 1;
+    private static final int MAX_DOWNLOADS = MAX_BROWSERS * 2;
+
     private JTextField urlField;
     private JTextField downloadFolderField;
     private JComboBox<String> scraperComboBox;
+    private JComboBox<String> sessionComboBox;
+    private JSpinner prioritySpinner;
     private JButton browseButton;
     private JButton scrapeButton;
+    private JButton cancelJobButton;
     private JButton assistedModeButton;
     private JButton completeButton;
     private JTextArea logArea;
 
+    // Job queue components
+    private final JobTableModel jobTableModel = new JobTableModel();
+    private JTable jobTable;
+    private JobScheduler jobScheduler;
+
     // Assisted mode components
     private AssistedModeManager assistedModeManager;
     private JPanel downloadFolderPanel; // Panel containing download folder components
 
+    // Session profiles loaded so far; reusing the same instance lets pooled browsers be shared between jobs
+    private final Map<String, SessionProfile> sessionProfiles = new HashMap<>();
+
     // Map to store scraper name to class mapping
     private final Map<String, Class<? extends WebScraper>> scraperClasses = new HashMap<>();
 
@@ -36,7 +60,7 @@ public class WebScraperGUI extends JFrame {
         // Set up the frame
         setTitle("Web Scraper GUI");
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
-        setSize(700, 400); // Slightly wider to accommodate new button
+        setSize(800, 600); // Room for the job table above the log
         setLocationRelativeTo(null);
 
         // Create components
@@ -124,28 +148,98 @@ public class WebScraperGUI extends JFrame {
         gbc.gridwidth = 1;
         inputPanel.add(completeButton, gbc);
 
-        // Scrape button
-        scrapeButton = new JButton("Scrape");
-        scrapeButton.addActionListener(this::scrapeButtonClicked);
+        // Priority input
+        gbc.gridx = 0;
+        gbc.gridy = 3;
+        gbc.gridwidth = 1;
+        inputPanel.add(new JLabel("Priority:"), gbc);
+
+        prioritySpinner = new JSpinner(new SpinnerNumberModel(0, -10, 10, 1));
         gbc.gridx = 1;
         gbc.gridy = 3;
         gbc.gridwidth = 1;
+        inputPanel.add(prioritySpinner, gbc);
+
+        // Scrape button (queues the job; the scheduler runs it when resources are free)
+        scrapeButton = new JButton("Add to Queue");
+        scrapeButton.addActionListener(this::scrapeButtonClicked);
+        gbc.gridx = 2;
+        gbc.gridy = 3;
+        gbc.gridwidth = 1;
         inputPanel.add(scrapeButton, gbc);
 
+        // Session profile selection (saved from assisted mode)
+        gbc.gridx = 0;
+        gbc.gridy = 4;
+        gbc.gridwidth = 1;
+        inputPanel.add(new JLabel("Session:"), gbc);
+
+        sessionComboBox = new JComboBox<>();
+        gbc.gridx = 1;
+        gbc.gridy = 4;
+        gbc.gridwidth = 1;
+        inputPanel.add(sessionComboBox, gbc);
+
+        // Cancel button for jobs that have not started yet
+        cancelJobButton = new JButton("Cancel Queued Job");
+        cancelJobButton.addActionListener(this::cancelJobButtonClicked);
+        gbc.gridx = 2;
+        gbc.gridy = 4;
+        gbc.gridwidth = 1;
+        inputPanel.add(cancelJobButton, gbc);
+
+        // Job table
+        jobTable = new JTable(jobTableModel);
+        jobTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        jobTable.getColumnModel().getColumn(0).setMaxWidth(40);
+        jobTable.getColumnModel().getColumn(2).setPreferredWidth(300);
+
         // Log area
         logArea = new JTextArea();
         logArea.setEditable(false);
         JScrollPane scrollPane = new JScrollPane(logArea);
 
+        JSplitPane splitPane = new JSplitPane(JSplitPane.VERTICAL_SPLIT, new JScrollPane(jobTable), scrollPane);
+        splitPane.setResizeWeight(0.4);
+
         // Add components to main panel
         mainPanel.add(inputPanel, BorderLayout.NORTH);
-        mainPanel.add(scrollPane, BorderLayout.CENTER);
+        mainPanel.add(splitPane, BorderLayout.CENTER);
 
         // Add main panel to frame
         add(mainPanel);
 
         // Initialize assisted mode manager
         assistedModeManager = new AssistedModeManager();
+        refreshSessionProfiles(null);
+
+        // Initialize the job scheduler; job updates arrive on worker threads, so capture the status they report
+        jobScheduler = new JobScheduler(MAX_BROWSERS, MAX_DOWNLOADS, MAX_CONCURRENT_JOBS, USER_AGENT, TIMEOUT_MILLIS,
+                job -> {
+                    ScrapeJob.Status status = job.getStatus();
+                    SwingUtilities.invokeLater(() -> jobUpdated(job, status));
+                });
+        logMessage("Job queue ready: up to " + MAX_CONCURRENT_JOBS + " jobs sharing " + MAX_BROWSERS
+                + " browsers and " + MAX_DOWNLOADS + " downloads.");
+
+        // Keep throughput of running jobs current between progress updates
+        new Timer(1_000, e -> jobTableModel.refreshRunning()).start();
+
+        // Quit pooled browsers when the window closes
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                jobScheduler.close();
+                assistedModeManager.stopAssistedMode();
+            }
+        });
+
+        // Redirect System.out and System.err to the log area, tagging lines printed by a job
+        PrintStreamRedirector.redirectSystemOut(message -> {
+            String threadName = Thread.currentThread().getName();
+            String line = threadName.startsWith(JobScheduler.JOB_THREAD_PREFIX) ? "[" + threadName + "] " + message : message;
+            SwingUtilities.invokeLater(() -> logMessage(line));
+        });
 
         // Initially hide download folder panel
         updateDownloadFolderVisibility();
@@ -193,6 +287,7 @@ public class WebScraperGUI extends JFrame {
             if (currentUrl != null && !currentUrl.isEmpty()) {
                 urlField.setText(currentUrl);
                 logMessage("URL captured: " + currentUrl);
+                captureSessionProfile(currentUrl);
             } else {
                 logMessage("No URL could be captured from the browser.");
             }
@@ -206,6 +301,55 @@ public class WebScraperGUI extends JFrame {
         }
     }
 
+    private void captureSessionProfile(String currentUrl) {
+        // Name the profile after the site, so returning to it later replaces the old session
+        String host = URI.create(currentUrl).getHost();
+        SessionProfile profile = assistedModeManager.captureSessionProfile(host != null ? host : "session");
+        if (profile == null) {
+            logMessage("Browser session could not be captured.");
+            return;
+        }
+
+        try {
+            profile.save(SessionProfile.DEFAULT_DIRECTORY);
+            sessionProfiles.put(profile.getName(), profile);
+            refreshSessionProfiles(profile.getName());
+            logMessage("Session '" + profile.getName() + "' saved with " + profile.getCookieCount()
+                    + " cookies; new jobs will use it.");
+        } catch (IOException ex) {
+            logMessage("Error saving session: " + ex.getMessage());
+        }
+    }
+
+    private void refreshSessionProfiles(String selected) {
+        sessionComboBox.removeAllItems();
+        sessionComboBox.addItem("-- None --");
+        try {
+            for (String name : SessionProfile.listSaved(SessionProfile.DEFAULT_DIRECTORY)) {
+                sessionComboBox.addItem(name);
+            }
+        } catch (IOException ex) {
+            logMessage("Error listing saved sessions: " + ex.getMessage());
+        }
+        if (selected != null) {
+            sessionComboBox.setSelectedItem(selected);
+        }
+    }
+
+    private SessionProfile selectedSessionProfile() throws IOException {
+        String name = (String) sessionComboBox.getSelectedItem();
+        if (name == null || name.equals("-- None --")) {
+            return null;
+        }
+
+        SessionProfile profile = sessionProfiles.get(name);
+        if (profile == null) {
+            profile = SessionProfile.load(SessionProfile.DEFAULT_DIRECTORY, name);
+            sessionProfiles.put(name, profile);
+        }
+        return profile;
+    }
+
     private void browseButtonClicked(ActionEvent e) {
         JFileChooser fileChooser = new JFileChooser();
         fileChooser.setFileSelectionMode(JFileChooser.DIRECTORIES_ONLY);
@@ -240,60 +384,43 @@ public class WebScraperGUI extends JFrame {
             return;
         }
 
-        // Disable UI during scraping
-        setUIEnabled(false);
-        logMessage("Starting scraping with " + scraperName + "...");
+        SessionProfile sessionProfile;
+        try {
+            sessionProfile = selectedSessionProfile();
+        } catch (IOException ex) {
+            logMessage("Error loading session: " + ex.getMessage());
+            return;
+        }
 
-        // Run scraping in background thread to keep UI responsive
-        SwingWorker<Void, Void> worker = new SwingWorker<>() {
-            @Override
-            protected Void doInBackground() {
-                try {
-                    // Create scraper instance using reflection
-                    Constructor<? extends WebScraper> constructor = scraperClass.getConstructor(
-                            String.class, int.class);
-
-                    WebScraper scraper = constructor.newInstance(
-                            "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/91.0.4472.124 Safari/537.36",
-                            15_000);
-
-                    // Set download folder if it's a FileDownloader
-                    if (scraper instanceof FileDownloader && scraper instanceof FredWebScraper) {
-                        ((FredWebScraper) scraper).setDownloadFolder(downloadFolder);
-                    }
-
-                    // Redirect System.out and System.err to the log area
-                    PrintStreamRedirector.redirectSystemOut(message -> SwingUtilities.invokeLater(() -> logMessage(message)));
-
-                    // Perform scraping
-                    scraper.scrape(url);
-
-                    return null;
-                } catch (Exception ex) {
-                    SwingUtilities.invokeLater(() -> logMessage("Error: " + ex.getMessage()));
-                    ex.printStackTrace();
-                    return null;
-                }
-            }
+        int priority = (Integer) prioritySpinner.getValue();
+        ScrapeJob job = jobScheduler.submit(scraperName, scraperClass, url, downloadFolder, sessionProfile, priority);
+        logMessage("Queued job #" + job.getId() + " (" + scraperName + ", priority " + priority + "): " + url);
+    }
 
-            @Override
-            protected void done() {
-                // Re-enable UI after scraping is done
-                setUIEnabled(true);
-                logMessage("Scraping completed.");
-            }
-        };
+    private void cancelJobButtonClicked(ActionEvent e) {
+        int row = jobTable.getSelectedRow();
+        if (row < 0) {
+            logMessage("Select a queued job to cancel");
+            return;
+        }
 
-        worker.execute();
+        ScrapeJob job = jobTableModel.getJobAt(jobTable.convertRowIndexToModel(row));
+        if (jobScheduler.cancel(job)) {
+            logMessage("Cancelled job #" + job.getId());
+        } else {
+            logMessage("Job #" + job.getId() + " has already started and cannot be cancelled");
+        }
     }
 
-    private void setUIEnabled(boolean enabled) {
-        urlField.setEnabled(enabled);
-        downloadFolderField.setEnabled(enabled);
-        scraperComboBox.setEnabled(enabled);
-        browseButton.setEnabled(enabled);
-        scrapeButton.setEnabled(enabled);
-        assistedModeButton.setEnabled(enabled);
+    private void jobUpdated(ScrapeJob job, ScrapeJob.Status status) {
+        jobTableModel.jobUpdated(job);
+
+        switch (status) {
+            case COMPLETED -> logMessage("Job #" + job.getId() + " completed.");
+            case FAILED -> logMessage("Job #" + job.getId() + " failed: " + job.getMessage());
+            default -> {
+            }
+        }
     }
 
     private void logMessage(String message) {
@@ -0,0 +1,473 @@
+package net.neological.webscraping;
+
+import lombok.Getter;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Asynchronous download engine on a single shared {@link HttpClient}, so connections are reused and,
+ * where the server supports it, many downloads are multiplexed over one HTTP/2 connection. Response
+ * bodies are streamed straight to disk through a {@link FileChannel} in large batches, and every call
+ * returns a {@link CompletableFuture} that completes with the outcome or fails with the real error.
+ */
+public class AsyncFileDownloader {
+    public static final int DEFAULT_MAX_CONCURRENT_DOWNLOADS = 64;
+
+    private static final int WRITE_BUFFER_SIZE = 256 * 1024;
+    private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(10);
+    private static final Duration RESPONSE_TIMEOUT = Duration.ofSeconds(30);
+    // The request timeout only covers the response headers; this bounds how long a body may stall
+    private static final Duration BODY_IDLE_TIMEOUT = Duration.ofSeconds(30);
+
+    // Temporary files are private by default; downloads should end up readable like any other new file
+    private static final Set<PosixFilePermission> DOWNLOADED_FILE_PERMISSIONS = PosixFilePermissions.fromString("rw-r--r--");
+
+    private final HttpClient client;
+    private final int maxConcurrentDownloads;
+
+    // Starts queued requests off the completing thread, so a run of requests failing immediately cannot recurse
+    private final ExecutorService dispatcher = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "Download dispatcher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Requests beyond the concurrency limit wait here instead of blocking the caller
+    private final Queue<Runnable> waiting = new ArrayDeque<>();
+    private int inFlight = 0;
+
+    /**
+     * Outcome of a successful download.
+     *
+     * @param url        the URL downloaded.
+     * @param file       the file written.
+     * @param statusCode the HTTP status code of the response.
+     * @param bytes      the number of bytes written.
+     * @param elapsed    the time from starting the request to the file being in place.
+     */
+    public record DownloadResult(String url, Path file, int statusCode, long bytes, Duration elapsed) {
+    }
+
+    /**
+     * Thrown (as the cause of a failed future) when the server answers with a non-2xx status.
+     */
+    @Getter
+    public static class HttpStatusException extends IOException {
+        private final int statusCode;
+
+        public HttpStatusException(String url, int statusCode) {
+            super("Failed to download " + url + ": HTTP status code " + statusCode);
+            this.statusCode = statusCode;
+        }
+    }
+
+    private static final ScheduledExecutorService TIMER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "Download timeout timer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static final class SharedHolder {
+        private static final AsyncFileDownloader INSTANCE = new AsyncFileDownloader(DEFAULT_MAX_CONCURRENT_DOWNLOADS);
+    }
+
+    /**
+     * @return the process-wide engine, so all downloaders share one connection pool.
+     */
+    public static AsyncFileDownloader shared() {
+        return SharedHolder.INSTANCE;
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param maxConcurrentDownloads the number of requests allowed in flight at once; further requests are queued.
+     */
+    public AsyncFileDownloader(int maxConcurrentDownloads) {
+        if (maxConcurrentDownloads < 1) {
+            throw new IllegalArgumentException("maxConcurrentDownloads must be at least 1");
+        }
+        this.maxConcurrentDownloads = maxConcurrentDownloads;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .connectTimeout(CONNECT_TIMEOUT)
+                .build();
+    }
+
+    /**
+     * Downloads a URL to a file. The body is written to a uniquely named {@code .part} file next to the
+     * destination and moved into place only once complete, so a failed download never leaves a truncated
+     * file behind, and concurrent downloads of the same file never write into each other. Missing parent
+     * directories are created. A download whose body stops arriving for {@link #BODY_IDLE_TIMEOUT} fails
+     * with an {@link HttpTimeoutException}.
+     *
+     * @param fileUrl  the URL of the file to download.
+     * @param destFile the file to write.
+     * @return a future completing with the result, or failing with an {@link IOException}
+     * ({@link HttpStatusException} for non-2xx responses).
+     */
+    public CompletableFuture<DownloadResult> download(String fileUrl, Path destFile) {
+        return schedule(() -> {
+            long start = System.nanoTime();
+            Path partFile;
+            try {
+                Path parent = destFile.toAbsolutePath().getParent();
+                Files.createDirectories(parent);
+                partFile = Files.createTempFile(parent, destFile.getFileName() + ".", ".part");
+                if (parent.getFileSystem().supportedFileAttributeViews().contains("posix")) {
+                    Files.setPosixFilePermissions(partFile, DOWNLOADED_FILE_PERMISSIONS);
+                }
+            } catch (IOException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+
+            HttpResponse.BodyHandler<Long> handler = info -> new IdleTimeoutSubscriber<>(isSuccess(info.statusCode())
+                    ? new FileChannelSubscriber(partFile)
+                    : HttpResponse.BodySubscribers.replacing(-1L), fileUrl);
+
+            return client.sendAsync(newRequest(fileUrl), handler)
+                    .thenApply(response -> {
+                        if (!isSuccess(response.statusCode())) {
+                            throw new CompletionException(new HttpStatusException(fileUrl, response.statusCode()));
+                        }
+                        try {
+                            moveIntoPlace(partFile, destFile);
+                        } catch (IOException e) {
+                            throw new CompletionException(e);
+                        }
+                        return new DownloadResult(fileUrl, destFile, response.statusCode(), response.body(),
+                                Duration.ofNanos(System.nanoTime() - start));
+                    })
+                    .whenComplete((result, error) -> {
+                        if (error != null) {
+                            deleteQuietly(partFile);
+                        }
+                    });
+        });
+    }
+
+    /**
+     * Downloads the body of a URL into memory as UTF-8 text. Intended for small payloads. Like
+     * {@link #download(String, Path)}, it fails with an {@link HttpTimeoutException} if the body stalls.
+     *
+     * @param fileUrl the URL to download.
+     * @return a future completing with the body, or failing with an {@link IOException}.
+     */
+    public CompletableFuture<String> downloadText(String fileUrl) {
+        HttpResponse.BodyHandler<String> handler = info -> new IdleTimeoutSubscriber<>(
+                HttpResponse.BodySubscribers.ofString(StandardCharsets.UTF_8), fileUrl);
+        return schedule(() -> client.sendAsync(newRequest(fileUrl), handler)
+                .thenApply(response -> {
+                    if (!isSuccess(response.statusCode())) {
+                        throw new CompletionException(new HttpStatusException(fileUrl, response.statusCode()));
+                    }
+                    return response.body();
+                }));
+    }
+
+    /**
+     * Unwraps the failure of a future from this engine into the {@link IOException} it carries, for
+     * callers that block on the result.
+     *
+     * @param future a future returned by this engine.
+     * @return the future's value.
+     * @throws IOException the download error.
+     */
+    public static <T> T await(CompletableFuture<T> future) throws IOException {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            if (cause instanceof IOException ioException) {
+                throw ioException;
+            }
+            throw new IOException(cause.getMessage(), cause);
+        }
+    }
+
+    private HttpRequest newRequest(String fileUrl) {
+        return HttpRequest.newBuilder(URI.create(fileUrl))
+                .timeout(RESPONSE_TIMEOUT)
+                .GET()
+                .build();
+    }
+
+    private <T> CompletableFuture<T> schedule(Supplier<CompletableFuture<T>> task) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Runnable start = () -> {
+            CompletableFuture<T> running;
+            try {
+                running = task.get();
+            } catch (RuntimeException e) {
+                running = CompletableFuture.failedFuture(e);
+            }
+            running.whenComplete((value, error) -> {
+                finished();
+                if (error != null) {
+                    result.completeExceptionally(error instanceof CompletionException && error.getCause() != null
+                            ? error.getCause()
+                            : error);
+                } else {
+                    result.complete(value);
+                }
+            });
+        };
+
+        boolean startNow;
+        synchronized (this) {
+            startNow = inFlight < maxConcurrentDownloads;
+            if (startNow) {
+                inFlight++;
+            } else {
+                waiting.add(start);
+            }
+        }
+        if (startNow) {
+            start.run();
+        }
+        return result;
+    }
+
+    private void finished() {
+        Runnable next;
+        synchronized (this) {
+            next = waiting.poll();
+            if (next == null) {
+                inFlight--;
+            }
+        }
+        // The finished request's slot passes straight to the next waiting one
+        if (next != null) {
+            dispatcher.execute(next);
+        }
+    }
+
+    private static boolean isSuccess(int statusCode) {
+        return statusCode / 100 == 2;
+    }
+
+    private static void moveIntoPlace(Path partFile, Path destFile) throws IOException {
+        try {
+            Files.move(partFile, destFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(partFile, destFile, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            // Ignore errors when cleaning up
+        }
+    }
+
+    /**
+     * Streams a response body into a file, gathering the client's small chunks into one large buffer
+     * so the file is written in few, large writes.
+     */
+    private static final class FileChannelSubscriber implements HttpResponse.BodySubscriber<Long> {
+        private final Path file;
+        private final CompletableFuture<Long> result = new CompletableFuture<>();
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE);
+        private FileChannel channel;
+        private Flow.Subscription subscription;
+        private long written = 0;
+
+        FileChannelSubscriber(Path file) {
+            this.file = file;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            try {
+                channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                        StandardOpenOption.TRUNCATE_EXISTING);
+            } catch (IOException e) {
+                subscription.cancel();
+                result.completeExceptionally(e);
+                return;
+            }
+            subscription.request(1);
+        }
+
+        @Override
+        public void onNext(List<ByteBuffer> items) {
+            try {
+                for (ByteBuffer item : items) {
+                    while (item.hasRemaining()) {
+                        if (!buffer.hasRemaining()) {
+                            flush();
+                        }
+                        int count = Math.min(buffer.remaining(), item.remaining());
+                        ByteBuffer slice = item.duplicate();
+                        slice.limit(slice.position() + count);
+                        buffer.put(slice);
+                        item.position(item.position() + count);
+                    }
+                }
+                subscription.request(1);
+            } catch (IOException e) {
+                subscription.cancel();
+                fail(e);
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            fail(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            try {
+                flush();
+                channel.close();
+                result.complete(written);
+            } catch (IOException e) {
+                fail(e);
+            }
+        }
+
+        @Override
+        public CompletionStage<Long> getBody() {
+            return result;
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                written += channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        private void fail(Throwable throwable) {
+            try {
+                if (channel != null) {
+                    channel.close();
+                }
+            } catch (IOException e) {
+                throwable.addSuppressed(e);
+            }
+            result.completeExceptionally(throwable);
+        }
+    }
+
+    /**
+     * Passes a response body through to another subscriber, cancelling the exchange and failing the body
+     * with an {@link HttpTimeoutException} if no data arrives for {@link #BODY_IDLE_TIMEOUT}.
+     */
+    private static final class IdleTimeoutSubscriber<T> implements HttpResponse.BodySubscriber<T> {
+        private final HttpResponse.BodySubscriber<T> downstream;
+        private final String url;
+        private final AtomicBoolean terminated = new AtomicBoolean();
+        private volatile Flow.Subscription subscription;
+        private volatile long lastActivity;
+        private volatile ScheduledFuture<?> idleCheck;
+
+        IdleTimeoutSubscriber(HttpResponse.BodySubscriber<T> downstream, String url) {
+            this.downstream = downstream;
+            this.url = url;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            lastActivity = System.nanoTime();
+            scheduleIdleCheck(BODY_IDLE_TIMEOUT.toNanos());
+            downstream.onSubscribe(subscription);
+        }
+
+        @Override
+        public void onNext(List<ByteBuffer> items) {
+            lastActivity = System.nanoTime();
+            downstream.onNext(items);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            if (terminate()) {
+                downstream.onError(throwable);
+            }
+        }
+
+        @Override
+        public void onComplete() {
+            if (terminate()) {
+                downstream.onComplete();
+            }
+        }
+
+        @Override
+        public CompletionStage<T> getBody() {
+            return downstream.getBody();
+        }
+
+        private void scheduleIdleCheck(long delayNanos) {
+            idleCheck = TIMER.schedule(this::checkIdle, delayNanos, TimeUnit.NANOSECONDS);
+        }
+
+        // Runs on the timer thread; re-arms itself for the rest of the idle period while data keeps arriving
+        private void checkIdle() {
+            if (terminated.get() || downstream.getBody().toCompletableFuture().isDone()) {
+                return;
+            }
+            long idle = System.nanoTime() - lastActivity;
+            long timeout = BODY_IDLE_TIMEOUT.toNanos();
+            if (idle < timeout) {
+                scheduleIdleCheck(timeout - idle);
+                return;
+            }
+            subscription.cancel();
+            onError(new HttpTimeoutException("No data received for " + BODY_IDLE_TIMEOUT.toSeconds() + "s from " + url));
+        }
+
+        /**
+         * @return true for the first terminal signal, which is the only one passed on.
+         */
+        private boolean terminate() {
+            if (!terminated.compareAndSet(false, true)) {
+                return false;
+            }
+            ScheduledFuture<?> check = idleCheck;
+            if (check != null) {
+                check.cancel(false);
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package net.neological.webscraping;
+
+import io.github.bonigarcia.wdm.WebDriverManager;
+import lombok.Getter;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.chrome.ChromeDriver;
+import org.openqa.selenium.chrome.ChromeOptions;
+import org.openqa.selenium.chromium.HasCdp;
+
+import java.net.URI;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+
+/**
+ * A bounded pool of headless Chrome browsers shared between scrapers. Browsers are reused between
+ * pages instead of being launched and quit for every fetch, and at most {@code maxBrowsers} exist at
+ * any time. Waiting callers are served in arrival order, so concurrent jobs share the browsers fairly.
+ * Browsers are only reused by callers asking for the same User-Agent and {@link SessionProfile}, and
+ * their cookies and storage are cleared on release, so every fetch starts from the same session state a
+ * newly launched browser would have.
+ */
+public class BrowserPool implements AutoCloseable {
+    @Getter
+    private final int maxBrowsers;
+
+    private final Semaphore permits;
+    private final Map<BrowserKey, Deque<WebDriver>> idleByKey = new HashMap<>();
+    private final Map<WebDriver, BrowserKey> keys = new HashMap<>();
+    private boolean closed = false;
+
+    /**
+     * Constructor.
+     *
+     * @param maxBrowsers the maximum number of browsers alive at once.
+     */
+    public BrowserPool(int maxBrowsers) {
+        if (maxBrowsers < 1) {
+            throw new IllegalArgumentException("maxBrowsers must be at least 1");
+        }
+        this.maxBrowsers = maxBrowsers;
+        this.permits = new Semaphore(maxBrowsers, true);
+    }
+
+    /**
+     * Takes a browser presenting the given User-Agent and session state, reusing an idle one when possible.
+     * Blocks while all browsers are in use.
+     *
+     * @param userAgent      the User-Agent the browser should present.
+     * @param sessionProfile session state to load into a new browser, or null to start clean.
+     * @return a browser that must be handed back with {@link #release(WebDriver)} or {@link #discard(WebDriver)}.
+     * @throws InterruptedException if interrupted while waiting for a browser.
+     */
+    public WebDriver acquire(String userAgent, SessionProfile sessionProfile) throws InterruptedException {
+        BrowserKey key = new BrowserKey(userAgent, sessionProfile);
+        permits.acquire();
+        try {
+            WebDriver stale = null;
+            synchronized (this) {
+                if (closed) {
+                    throw new IllegalStateException("Browser pool is closed");
+                }
+
+                Deque<WebDriver> idle = idleByKey.get(key);
+                if (idle != null && !idle.isEmpty()) {
+                    return idle.pop();
+                }
+
+                // Keep the number of live browsers bounded by retiring an idle one set up differently
+                for (Deque<WebDriver> other : idleByKey.values()) {
+                    if (!other.isEmpty()) {
+                        stale = other.pop();
+                        keys.remove(stale);
+                        break;
+                    }
+                }
+            }
+            if (stale != null) {
+                quitQuietly(stale);
+            }
+
+            WebDriver driver = createHeadlessDriver(userAgent, sessionProfile);
+            boolean closedMeanwhile;
+            synchronized (this) {
+                closedMeanwhile = closed;
+                if (!closedMeanwhile) {
+                    keys.put(driver, key);
+                }
+            }
+            if (closedMeanwhile) {
+                quitQuietly(driver);
+                throw new IllegalStateException("Browser pool is closed");
+            }
+            return driver;
+        } catch (RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns a healthy browser to the pool for reuse, after clearing the cookies and storage it picked up.
+     * A browser that cannot be reset is quit instead.
+     *
+     * @param driver a browser obtained from {@link #acquire(String, SessionProfile)}.
+     */
+    public void release(WebDriver driver) {
+        BrowserKey key;
+        synchronized (this) {
+            key = closed ? null : keys.get(driver);
+        }
+
+        boolean reset = false;
+        if (key != null) {
+            try {
+                resetSession(driver, key.sessionProfile());
+                reset = true;
+            } catch (RuntimeException e) {
+                // Fall through and quit it
+            }
+        }
+
+        boolean quit;
+        synchronized (this) {
+            quit = closed || !reset;
+            if (quit) {
+                keys.remove(driver);
+            } else {
+                idleByKey.computeIfAbsent(key, k -> new ArrayDeque<>()).push(driver);
+            }
+        }
+        if (quit) {
+            quitQuietly(driver);
+        }
+        permits.release();
+    }
+
+    /**
+     * Quits a browser that is in an unknown state (e.g. after a failed page load) instead of reusing it.
+     *
+     * @param driver a browser obtained from {@link #acquire(String, SessionProfile)}.
+     */
+    public void discard(WebDriver driver) {
+        synchronized (this) {
+            keys.remove(driver);
+        }
+        quitQuietly(driver);
+        permits.release();
+    }
+
+    /**
+     * Quits every browser, including those still in use, so no Chrome processes outlive the application.
+     * Scrapers still holding a browser see their next command fail; handing it back afterwards is harmless.
+     */
+    @Override
+    public void close() {
+        Deque<WebDriver> toQuit = new ArrayDeque<>();
+        synchronized (this) {
+            closed = true;
+            toQuit.addAll(keys.keySet());
+            idleByKey.clear();
+            keys.clear();
+        }
+        toQuit.forEach(BrowserPool::quitQuietly);
+    }
+
+    /**
+     * Launches a headless Chrome with the options used for all scraping.
+     *
+     * @param userAgent      the User-Agent header to present.
+     * @param sessionProfile session state to load before the first navigation, or null to start clean.
+     * @return a new browser, which the caller is responsible for quitting.
+     */
+    public static WebDriver createHeadlessDriver(String userAgent, SessionProfile sessionProfile) {
+        WebDriverManager.chromedriver().setup();
+
+        ChromeOptions options = new ChromeOptions();
+        options.addArguments("--headless");
+        options.addArguments("--disable-gpu");
+        options.addArguments("--no-sandbox");
+        options.addArguments("--disable-dev-shm-usage");
+        options.addArguments("--blink-settings=imagesEnabled=false"); // turn off image loading
+        options.addArguments("--user-agent=" + userAgent);
+
+        WebDriver driver = new ChromeDriver(options);
+        if (sessionProfile != null) {
+            try {
+                sessionProfile.applyTo(driver);
+            } catch (RuntimeException e) {
+                driver.quit();
+                throw e;
+            }
+        }
+        return driver;
+    }
+
+    /**
+     * Clears every cookie and the storage of the origin the browser was last on, then restores the
+     * profile's cookies, if any.
+     */
+    private static void resetSession(WebDriver driver, SessionProfile sessionProfile) {
+        HasCdp cdp = (HasCdp) driver;
+
+        URI current = URI.create(driver.getCurrentUrl());
+        if (current.getScheme() != null && current.getScheme().startsWith("http") && current.getHost() != null) {
+            String origin = current.getScheme() + "://" + current.getRawAuthority();
+            cdp.executeCdpCommand("Storage.clearDataForOrigin", Map.of("origin", origin, "storageTypes", "all"));
+        }
+        cdp.executeCdpCommand("Network.clearBrowserCookies", Map.of());
+
+        if (sessionProfile != null) {
+            sessionProfile.restoreCookies(driver);
+        }
+    }
+
+    // Profiles compare by identity: a re-captured profile with the same name gets fresh browsers
+    private record BrowserKey(String userAgent, SessionProfile sessionProfile) {
+    }
+
+    private static void quitQuietly(WebDriver driver) {
+        try {
+            driver.quit();
+        } catch (Exception e) {
+            // Ignore errors when closing
+        }
+    }
+}
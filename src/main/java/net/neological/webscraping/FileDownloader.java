@@ -2,61 +2,53 @@
 package net.neological.webscraping;
 
 import java.io.IOException;
-import java.io.InputStream;
-import java.net.HttpURLConnection;
-import java.net.URI;
-import java.net.URL;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
+import java.util.concurrent.CompletableFuture;
 
 /**
- * Interface for downloading files from URLs to specified file paths.
+ * Interface for downloading files from URLs to specified file paths. Downloads go through the shared
+ * {@link AsyncFileDownloader}, so all implementations reuse the same connections.
  */
 public interface FileDownloader {
 
     /**
-     * Downloads a file from the given URL to the specified file path.
+     * Downloads a file from the given URL to the specified file path, blocking until it is complete.
      *
-     * @param fileUrl      the URL of the file to download
-     * @param filePath the destination path where the file should be saved
-     * @throws IOException if an error occurs during download
+     * @param fileUrl  the URL of the file to download
+     * @param filePath the destination file; missing parent directories are created
+     * @throws IOException if an error occurs during download, including a non-2xx HTTP status
      */
     default void downloadFile(String fileUrl, String filePath) throws IOException {
-        try {
-            URI uri = URI.create(fileUrl);
-            URL url = uri.toURL();
-
-            HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-            connection.setRequestMethod("GET");
-            connection.setConnectTimeout(10_000); // 10 seconds
-            connection.setReadTimeout(10_000);
-
-            int statusCode = connection.getResponseCode();
-            if (statusCode != HttpURLConnection.HTTP_OK) {
-                throw new IOException("Failed to download file: HTTP status code " + statusCode);
-            }
-
-            Path dir = Paths.get(filePath);
-            if (Files.exists(dir) && !Files.isDirectory(dir)) {
-                connection.disconnect();
-                throw new IOException("The specified path exists and is not a directory: " + filePath);
-            }
-            Files.createDirectories(dir);
-
-            // Destination file within the folder
-            Path destFile = dir.resolve(filePath);
-
-            // Stream data from the URL to the destination file
-            try (InputStream in = connection.getInputStream()) {
-                Files.copy(in, destFile, StandardCopyOption.REPLACE_EXISTING);
-            } finally {
-                connection.disconnect();
-            }
+        AsyncFileDownloader.await(downloadFileAsync(fileUrl, filePath));
+    }
 
-        } catch (Exception e) {
-            System.err.println("Error downloading CSV: " + e.getMessage());
+    /**
+     * Starts downloading a file from the given URL to the specified file path without blocking.
+     *
+     * @param fileUrl  the URL of the file to download
+     * @param filePath the destination file; missing parent directories are created
+     * @return a future completing with the download result, or failing with an {@link IOException}
+     */
+    default CompletableFuture<AsyncFileDownloader.DownloadResult> downloadFileAsync(String fileUrl, String filePath) {
+        Path destFile = Paths.get(filePath);
+        if (Files.isDirectory(destFile)) {
+            return CompletableFuture.failedFuture(
+                    new IOException("The specified path is a directory, not a file: " + filePath));
         }
+        return AsyncFileDownloader.shared().download(fileUrl, destFile);
+    }
+
+    /**
+     * Downloads the body of the given URL into memory as UTF-8 text. Intended for small payloads,
+     * such as the handful of rows returned by an incremental update.
+     *
+     * @param fileUrl the URL of the resource to download
+     * @return the response body
+     * @throws IOException if the connection fails or the server does not answer with a 2xx status
+     */
+    default String downloadText(String fileUrl) throws IOException {
+        return AsyncFileDownloader.await(AsyncFileDownloader.shared().downloadText(fileUrl));
     }
-}
\ No newline at end of file
+}
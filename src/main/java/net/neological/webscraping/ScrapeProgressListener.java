@@ -0,0 +1,17 @@
+package net.neological.webscraping;
+
+/**
+ * Receives progress updates from scrapers that work through a list of items (e.g. the series on a
+ * search-results page).
+ */
+@FunctionalInterface
+public interface ScrapeProgressListener {
+
+    /**
+     * Called once the number of items is known, and again after each item finishes (successfully or not).
+     *
+     * @param completed the number of items processed so far.
+     * @param total     the total number of items.
+     */
+    void onProgress(int completed, int total);
+}
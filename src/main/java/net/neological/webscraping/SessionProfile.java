@@ -0,0 +1,299 @@
+package net.neological.webscraping;
+
+import lombok.Getter;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.chromium.HasCdp;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Browser session state (cookies for every domain, plus local storage) captured from a browser the user
+ * drove by hand, so headless browsers can start past consent banners, logins and similar interstitials.
+ * <p>
+ * Profiles are saved as properties files under {@link #DEFAULT_DIRECTORY}. They contain session cookies
+ * in plain text, so treat them like saved passwords; where the file system supports POSIX permissions,
+ * they are only readable by their owner.
+ */
+public class SessionProfile {
+    public static final Path DEFAULT_DIRECTORY = Paths.get(System.getProperty("user.home"), ".webscraper", "profiles");
+
+    private static final String FILE_SUFFIX = ".properties";
+    private static final Set<PosixFilePermission> OWNER_ONLY_DIRECTORY = PosixFilePermissions.fromString("rwx------");
+    private static final Set<PosixFilePermission> OWNER_ONLY_FILE = PosixFilePermissions.fromString("rw-------");
+    private static final String[] COOKIE_FIELDS = {"name", "value", "domain", "path", "expires", "secure", "httpOnly", "sameSite"};
+
+    private static final String READ_LOCAL_STORAGE_SCRIPT = """
+            var items = {};
+            for (var i = 0; i < localStorage.length; i++) {
+                var key = localStorage.key(i);
+                items[key] = localStorage.getItem(key);
+            }
+            return items;""";
+
+    @Getter
+    private final String name;
+
+    // Cookies in the shape the DevTools Network domain uses, so they can be handed back unchanged
+    private final List<Map<String, String>> cookies = new ArrayList<>();
+
+    // Local storage items keyed by origin, e.g. "https://fred.stlouisfed.org"
+    private final Map<String, Map<String, String>> localStorage = new LinkedHashMap<>();
+
+    /**
+     * Constructor for an empty profile.
+     *
+     * @param name the profile name, also used as its file name.
+     */
+    public SessionProfile(String name) {
+        this.name = name.replaceAll("[^A-Za-z0-9._-]", "_");
+    }
+
+    /**
+     * Captures the cookies of every domain the browser has visited, and the local storage of the page
+     * it is currently showing.
+     *
+     * @param name   the name to give the profile.
+     * @param driver a Chrome browser.
+     * @return the captured profile.
+     */
+    @SuppressWarnings("unchecked")
+    public static SessionProfile capture(String name, WebDriver driver) {
+        SessionProfile profile = new SessionProfile(name);
+
+        Map<String, Object> result = ((HasCdp) driver).executeCdpCommand("Network.getAllCookies", Map.of());
+        for (Map<String, Object> cookie : (List<Map<String, Object>>) result.getOrDefault("cookies", List.of())) {
+            Map<String, String> fields = new LinkedHashMap<>();
+            for (String field : COOKIE_FIELDS) {
+                Object value = cookie.get(field);
+                if (value != null) {
+                    fields.put(field, value.toString());
+                }
+            }
+            profile.cookies.add(fields);
+        }
+
+        JavascriptExecutor js = (JavascriptExecutor) driver;
+        Object origin = js.executeScript("return location.origin;");
+        if (origin instanceof String originUrl && originUrl.startsWith("http")) {
+            Map<String, String> items = new LinkedHashMap<>();
+            ((Map<String, Object>) js.executeScript(READ_LOCAL_STORAGE_SCRIPT))
+                    .forEach((key, value) -> items.put(key, String.valueOf(value)));
+            if (!items.isEmpty()) {
+                profile.localStorage.put(originUrl, items);
+            }
+        }
+
+        return profile;
+    }
+
+    /**
+     * Loads this profile into a freshly launched Chrome browser, before it navigates anywhere. Cookies are
+     * set directly; local storage is seeded by a script that runs ahead of each matching page's own scripts,
+     * so no extra navigation is needed.
+     *
+     * @param driver a Chrome browser.
+     */
+    public void applyTo(WebDriver driver) {
+        restoreCookies(driver);
+
+        if (!localStorage.isEmpty()) {
+            ((HasCdp) driver).executeCdpCommand("Page.addScriptToEvaluateOnNewDocument",
+                    Map.of("source", localStorageSeedScript()));
+        }
+    }
+
+    /**
+     * Sets this profile's cookies again, e.g. after a reused browser's cookies were cleared. Local storage
+     * needs no restoring, since the seed script installed by {@link #applyTo(WebDriver)} runs on every page.
+     *
+     * @param driver a Chrome browser this profile was applied to.
+     */
+    public void restoreCookies(WebDriver driver) {
+        if (!cookies.isEmpty()) {
+            List<Map<String, Object>> params = new ArrayList<>();
+            for (Map<String, String> cookie : cookies) {
+                Map<String, Object> param = new LinkedHashMap<>();
+                cookie.forEach((field, value) -> {
+                    switch (field) {
+                        case "secure", "httpOnly" -> param.put(field, Boolean.parseBoolean(value));
+                        case "expires" -> {
+                            // Session cookies are reported with expires = -1 and must be set without one
+                            double expires = Double.parseDouble(value);
+                            if (expires > 0) {
+                                param.put(field, expires);
+                            }
+                        }
+                        default -> param.put(field, value);
+                    }
+                });
+                params.add(param);
+            }
+            ((HasCdp) driver).executeCdpCommand("Network.setCookies", Map.of("cookies", params));
+        }
+    }
+
+    /**
+     * @return the number of cookies in this profile.
+     */
+    public int getCookieCount() {
+        return cookies.size();
+    }
+
+    /**
+     * Writes this profile to {@code <directory>/<name>.properties}, replacing any previous version. On POSIX
+     * file systems the file is made readable by its owner only, and a missing directory is created likewise.
+     *
+     * @param directory the profile directory, created if missing.
+     * @return the file written.
+     * @throws IOException if the file cannot be written.
+     */
+    public Path save(Path directory) throws IOException {
+        Properties properties = new Properties();
+        for (int i = 0; i < cookies.size(); i++) {
+            String prefix = "cookie." + i + ".";
+            cookies.get(i).forEach((field, value) -> properties.setProperty(prefix + field, value));
+        }
+
+        int index = 0;
+        for (Map.Entry<String, Map<String, String>> origin : localStorage.entrySet()) {
+            for (Map.Entry<String, String> item : origin.getValue().entrySet()) {
+                String prefix = "storage." + index++ + ".";
+                properties.setProperty(prefix + "origin", origin.getKey());
+                properties.setProperty(prefix + "key", item.getKey());
+                properties.setProperty(prefix + "value", item.getValue());
+            }
+        }
+
+        Path file = directory.resolve(name + FILE_SUFFIX);
+        boolean posix = directory.getFileSystem().supportedFileAttributeViews().contains("posix");
+        if (posix) {
+            Files.createDirectories(directory, PosixFilePermissions.asFileAttribute(OWNER_ONLY_DIRECTORY));
+
+            // Restrict the file before any cookie is written to it
+            if (Files.exists(file)) {
+                Files.setPosixFilePermissions(file, OWNER_ONLY_FILE);
+            } else {
+                Files.createFile(file, PosixFilePermissions.asFileAttribute(OWNER_ONLY_FILE));
+            }
+        } else {
+            Files.createDirectories(directory);
+        }
+
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            properties.store(writer, "Browser session profile " + name);
+        }
+        return file;
+    }
+
+    /**
+     * Reads a profile previously written by {@link #save(Path)}.
+     *
+     * @param directory the profile directory.
+     * @param name      the profile name.
+     * @return the loaded profile.
+     * @throws IOException if the file is missing or cannot be read.
+     */
+    public static SessionProfile load(Path directory, String name) throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(directory.resolve(name + FILE_SUFFIX), StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+
+        SessionProfile profile = new SessionProfile(name);
+        for (int i = 0; properties.containsKey("cookie." + i + ".name"); i++) {
+            Map<String, String> fields = new LinkedHashMap<>();
+            for (String field : COOKIE_FIELDS) {
+                String value = properties.getProperty("cookie." + i + "." + field);
+                if (value != null) {
+                    fields.put(field, value);
+                }
+            }
+            profile.cookies.add(fields);
+        }
+        for (int i = 0; properties.containsKey("storage." + i + ".origin"); i++) {
+            String prefix = "storage." + i + ".";
+            profile.localStorage
+                    .computeIfAbsent(properties.getProperty(prefix + "origin"), k -> new LinkedHashMap<>())
+                    .put(properties.getProperty(prefix + "key"), properties.getProperty(prefix + "value", ""));
+        }
+        return profile;
+    }
+
+    /**
+     * Lists the names of the profiles saved in a directory.
+     *
+     * @param directory the profile directory.
+     * @return profile names, sorted; empty if the directory does not exist.
+     * @throws IOException if the directory cannot be listed.
+     */
+    public static List<String> listSaved(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> file.getFileName().toString())
+                    .filter(fileName -> fileName.endsWith(FILE_SUFFIX))
+                    .map(fileName -> fileName.substring(0, fileName.length() - FILE_SUFFIX.length()))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private String localStorageSeedScript() {
+        StringBuilder script = new StringBuilder("(function () {\nvar seeds = {");
+        boolean first = true;
+        for (Map.Entry<String, Map<String, String>> origin : localStorage.entrySet()) {
+            script.append(first ? "" : ",").append(jsString(origin.getKey())).append(": {");
+            first = false;
+
+            boolean firstItem = true;
+            for (Map.Entry<String, String> item : origin.getValue().entrySet()) {
+                script.append(firstItem ? "" : ",").append(jsString(item.getKey())).append(": ").append(jsString(item.getValue()));
+                firstItem = false;
+            }
+            script.append("}");
+        }
+        script.append("};\n")
+                .append("var items = seeds[location.origin];\n")
+                .append("if (!items) return;\n")
+                .append("try {\n")
+                // Only fill gaps, so values the site has since changed are not overwritten on later pages
+                .append("  for (var key in items) { if (localStorage.getItem(key) === null) localStorage.setItem(key, items[key]); }\n")
+                .append("} catch (e) {}\n")
+                .append("})();");
+        return script.toString();
+    }
+
+    private static String jsString(String value) {
+        StringBuilder out = new StringBuilder("\"");
+        for (char c : value.toCharArray()) {
+            switch (c) {
+                case '"' -> out.append("\\\"");
+                case '\\' -> out.append("\\\\");
+                case '\n' -> out.append("\\n");
+                case '\r' -> out.append("\\r");
+                case '<' -> out.append("\\u003c");
+                case '\u2028' -> out.append("\\u2028");
+                case '\u2029' -> out.append("\\u2029");
+                default -> out.append(c < 0x20 ? String.format("\\u%04x", (int) c) : String.valueOf(c));
+            }
+        }
+        return out.append('"').toString();
+    }
+}
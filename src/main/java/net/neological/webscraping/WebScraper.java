@@ -1,12 +1,10 @@
 package net.neological.webscraping;
 
 import lombok.Getter;
+import lombok.Setter;
 import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
-import io.github.bonigarcia.wdm.WebDriverManager;
 import org.openqa.selenium.WebDriver;
-import org.openqa.selenium.chrome.ChromeDriver;
-import org.openqa.selenium.chrome.ChromeOptions;
 
 import java.io.IOException;
 import java.time.Duration;
@@ -20,6 +18,22 @@ public abstract class WebScraper {
     protected final String userAgent;
     protected final int timeoutMillis;
 
+    /**
+     * Shared browsers to borrow from. When null, each fetch launches and quits its own browser.
+     */
+    @Setter
+    protected BrowserPool browserPool;
+
+    @Setter
+    protected ScrapeProgressListener progressListener;
+
+    /**
+     * Cookies and local storage to start each browser with, typically captured in assisted mode.
+     * When null, browsers start with a clean session.
+     */
+    @Setter
+    protected SessionProfile sessionProfile;
+
     /**
      * Constructor.
      *
@@ -47,25 +61,17 @@ public abstract class WebScraper {
     }
 
     /**
-     * Uses WebDriverManager to set up ChromeDriver, launches headless Chrome with the specified User-Agent,
-     * navigates to the URL, waits up to {@code timeoutMillis} for the page to load, then grabs the page source
-     * and parses it via Jsoup.
+     * Obtains a headless Chrome with the specified User-Agent and {@link SessionProfile} (from the
+     * {@link BrowserPool} if one is set), navigates to the URL, waits up to {@code timeoutMillis} for the page
+     * to load, then grabs the page source and parses it via Jsoup.
      *
      * @param url the URL to fetch and render.
      * @return a Jsoup Document representing the fully rendered page.
      * @throws IOException if Selenium fails or Jsoup cannot parse the HTML.
      */
     protected Document fetchDocument(String url) throws IOException {
-        WebDriverManager.chromedriver().setup();
-
-        ChromeOptions options = new ChromeOptions();
-        options.addArguments("--headless");
-        options.addArguments("--disable-gpu");
-        options.addArguments("--no-sandbox");
-        options.addArguments("--blink-settings=imagesEnabled=false"); // turn off image loading
-        options.addArguments("--user-agent=" + userAgent);
-
-        WebDriver driver = new ChromeDriver(options);
+        WebDriver driver = acquireDriver();
+        boolean healthy = false;
         try {
             driver.manage().timeouts().pageLoadTimeout(Duration.ofMillis(timeoutMillis));
 
@@ -73,11 +79,61 @@ public abstract class WebScraper {
 
             String html = driver.getPageSource();
 
+            healthy = true;
             return Jsoup.parse(html, url);
         } catch (Exception e) {
             throw new IOException("Failed to fetch/render page via Selenium: " + e.getMessage(), e);
         } finally {
+            releaseDriver(driver, healthy);
+        }
+    }
+
+    /**
+     * Borrows a browser from the {@link BrowserPool}, or launches a new one if no pool is set.
+     * Every call must be paired with {@link #releaseDriver(WebDriver, boolean)}.
+     *
+     * @return a headless browser presenting this scraper's User-Agent and session state.
+     * @throws IOException if interrupted while waiting for a pooled browser, or the browser fails to start.
+     */
+    protected WebDriver acquireDriver() throws IOException {
+        try {
+            return browserPool != null
+                    ? browserPool.acquire(userAgent, sessionProfile)
+                    : BrowserPool.createHeadlessDriver(userAgent, sessionProfile);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for a browser", e);
+        } catch (Exception e) {
+            throw new IOException("Failed to start browser: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Hands a browser back after use. Healthy browsers return to the pool; browsers that failed, and
+     * every browser when no pool is set, are quit.
+     *
+     * @param driver  the browser obtained from {@link #acquireDriver()}.
+     * @param healthy whether the browser finished its work normally and can be reused.
+     */
+    protected void releaseDriver(WebDriver driver, boolean healthy) {
+        if (browserPool == null) {
             driver.quit();
+        } else if (healthy) {
+            browserPool.release(driver);
+        } else {
+            browserPool.discard(driver);
+        }
+    }
+
+    /**
+     * Forwards progress to the {@link ScrapeProgressListener}, if one is set.
+     *
+     * @param completed the number of items processed so far.
+     * @param total     the total number of items.
+     */
+    protected void reportProgress(int completed, int total) {
+        if (progressListener != null) {
+            progressListener.onProgress(completed, total);
         }
     }
 
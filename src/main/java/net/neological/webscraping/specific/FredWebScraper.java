@@ -1,7 +1,7 @@
 package net.neological.webscraping.specific;
 
-import io.github.bonigarcia.wdm.WebDriverManager;
 import lombok.Setter;
+import net.neological.webscraping.AsyncFileDownloader;
 import net.neological.webscraping.FileDownloader;
 import net.neological.webscraping.WebScraper;
 import org.jsoup.Jsoup;
@@ -12,23 +12,65 @@ import org.openqa.selenium.By;
 import org.openqa.selenium.JavascriptExecutor;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
-import org.openqa.selenium.chrome.ChromeDriver;
-import org.openqa.selenium.chrome.ChromeOptions;
 import org.openqa.selenium.support.ui.ExpectedConditions;
 import org.openqa.selenium.support.ui.WebDriverWait;
 
+import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.RandomAccessFile;
 import java.net.URI;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.time.Duration;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
 
 public class FredWebScraper extends WebScraper implements FileDownloader {
 
+    public static final String DEFAULT_BASE_URL = "https://fred.stlouisfed.org";
+
+    // Number of most recent local observations re-requested and compared to detect revised history
+    private static final int REVISION_CHECK_ROWS = 24;
+
+    // Initial size of the block read from the end of a CSV to find its last rows
+    private static final int TAIL_BLOCK_SIZE = 8 * 1024;
+
     @Setter
     private String downloadFolder;
 
+    /**
+     * Scheme and host that search-result and series URLs must start with. Only changed to point the
+     * scraper at a stand-in server, e.g. for benchmarking.
+     */
+    @Setter
+    private String baseUrl = DEFAULT_BASE_URL;
+
+    /**
+     * When true (the default), series that already have a CSV in the download folder are brought
+     * up to date by fetching only the observations after the last local date and appending them.
+     * When false, every series is downloaded in full.
+     */
+    @Setter
+    private boolean incrementalUpdate = true;
+
+    /**
+     * Limits how many CSV downloads run at once when several scrapers share a connection budget.
+     * When null, downloads are not limited.
+     */
+    @Setter
+    private Semaphore downloadSlots;
+
     /**
      * Constructor.
      *
@@ -46,18 +88,40 @@ public class FredWebScraper extends WebScraper implements FileDownloader {
 
         Series seriesScraper = new Series(userAgent, timeoutMillis);
         seriesScraper.setDownloadFolder(downloadFolder);
+        seriesScraper.setIncrementalUpdate(incrementalUpdate);
+        seriesScraper.setBrowserPool(browserPool);
+        seriesScraper.setSessionProfile(sessionProfile);
+
+        int completed = 0;
+        reportProgress(completed, seriesLinks.size());
 
         for (Element link : seriesLinks) {
+            // Stop between series when the job is cancelled or the application is closing
+            if (Thread.currentThread().isInterrupted()) {
+                break;
+            }
             String fullUrl = link.absUrl("href");
 
-            seriesScraper.scrape(fullUrl);
+            // One series failing to render should not abandon the rest of the search results
+            try {
+                seriesScraper.scrape(fullUrl);
+            } catch (IOException | IllegalArgumentException e) {
+                System.err.println("Failed to scrape " + fullUrl + ": " + e.getMessage());
+            }
+
+            reportProgress(++completed, seriesLinks.size());
+        }
+
+        seriesScraper.awaitDownloads();
+        if (Thread.currentThread().isInterrupted()) {
+            throw new InterruptedIOException("Interrupted after " + completed + " of " + seriesLinks.size() + " series");
         }
     }
 
     @Override
     protected boolean isValid(String url) {
         return url != null
-                && url.startsWith("https://fred.stlouisfed.org/searchresults/");
+                && url.startsWith(baseUrl + "/searchresults/");
     }
 
     private class Series extends WebScraper {
@@ -65,6 +129,12 @@ public class FredWebScraper extends WebScraper implements FileDownloader {
         @Setter
         private String downloadFolder;
 
+        @Setter
+        private boolean incrementalUpdate;
+
+        // Full downloads still streaming to disk while later series pages are rendered
+        private final List<CompletableFuture<?>> pendingDownloads = new ArrayList<>();
+
         /**
          * Constructor.
          *
@@ -78,17 +148,8 @@ public class FredWebScraper extends WebScraper implements FileDownloader {
 
         @Override
         protected Document fetchDocument(String url) throws IOException {
-            WebDriverManager.chromedriver().setup();
-
-            ChromeOptions options = new ChromeOptions();
-            options.addArguments("--headless");
-            options.addArguments("--disable-gpu");
-            options.addArguments("--no-sandbox");
-            options.addArguments("--disable-dev-shm-usage");
-            options.addArguments("--blink-settings=imagesEnabled=false");
-            options.addArguments("--user-agent=" + userAgent);
-
-            WebDriver driver = new ChromeDriver(options);
+            WebDriver driver = acquireDriver();
+            boolean healthy = false;
             try {
                 driver.manage().timeouts().pageLoadTimeout(Duration.ofMillis(timeoutMillis));
                 driver.get(url);
@@ -120,11 +181,16 @@ public class FredWebScraper extends WebScraper implements FileDownloader {
 
                 Thread.sleep(3_000); // Wait longer for download options to appear
                 String updatedHtml = driver.getPageSource();
-                return Jsoup.parse(updatedHtml, driver.getCurrentUrl());
+                Document document = Jsoup.parse(updatedHtml, driver.getCurrentUrl());
+                healthy = true;
+                return document;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while rendering " + url);
             } catch (Exception e) {
                 throw new IOException("Failed to fetch/render page via Selenium: " + e.getMessage(), e);
             } finally {
-                driver.quit();
+                releaseDriver(driver, healthy);
             }
         }
 
@@ -156,18 +222,225 @@ public class FredWebScraper extends WebScraper implements FileDownloader {
                 Path destFile = Paths.get(downloadFolder, fileName);
                 String filePath = destFile.toString();
 
-                // Use the FileDownloader interface to download the file
-                downloadFile(csvUrl, filePath);
+                if (downloadSlots != null) {
+                    downloadSlots.acquire();
+                }
+                CompletableFuture<AsyncFileDownloader.DownloadResult> download = null;
+                try {
+                    // Existing series only need the observations published since the last download
+                    if (!(incrementalUpdate && Files.isRegularFile(destFile) && appendNewObservations(csvUrl, destFile))) {
+                        // Use the FileDownloader interface to download the file in the background
+                        download = downloadFileAsync(csvUrl, filePath);
+                    }
+                } finally {
+                    if (download == null) {
+                        releaseDownloadSlot();
+                    }
+                }
+
+                if (download != null) {
+                    String savedName = fileName;
+                    pendingDownloads.add(download.whenComplete((result, error) -> {
+                        releaseDownloadSlot();
+                        if (error != null) {
+                            System.err.println("Error downloading " + savedName + ": " + error.getMessage());
+                        } else {
+                            System.out.println("Saved " + savedName + " (" + result.bytes() + " bytes)");
+                        }
+                    }));
+                }
 
+            } catch (InterruptedException e) {
+                // Leave the flag set so the search-results loop stops
+                Thread.currentThread().interrupt();
+                System.err.println("Interrupted before downloading " + csvUrl);
             } catch (Exception e) {
                 System.err.println("Error downloading CSV: " + e.getMessage());
             }
         }
 
+        /**
+         * Waits for every background download started by {@link #parse(Document)}. Failures have already
+         * been logged, so they are not rethrown.
+         */
+        private void awaitDownloads() {
+            for (CompletableFuture<?> download : pendingDownloads) {
+                try {
+                    download.join();
+                } catch (CompletionException e) {
+                    // Already reported when the download failed
+                }
+            }
+            pendingDownloads.clear();
+        }
+
+        private void releaseDownloadSlot() {
+            if (downloadSlots != null) {
+                downloadSlots.release();
+            }
+        }
+
+        /**
+         * Brings an existing local CSV up to date by requesting only recent observations (via the
+         * {@code cosd} start-date parameter) and appending the ones newer than the local file.
+         * <p>
+         * The request reaches back over the last {@value #REVISION_CHECK_ROWS} local rows, and every one of
+         * them must match what the server now returns. If the header or any overlapping row differs, the
+         * history has been revised (or the file is not one we wrote), and the caller should fall back to a
+         * full download, which replaces the file.
+         *
+         * @param csvUrl    the full-history CSV link found on the series page
+         * @param localFile the previously downloaded CSV for this series
+         * @return true if the local file is now current, false if a full refresh is required
+         * @throws IOException if the partial download or the append fails
+         */
+        private boolean appendNewObservations(String csvUrl, Path localFile) throws IOException {
+            String localHeader;
+            try (BufferedReader reader = Files.newBufferedReader(localFile, StandardCharsets.UTF_8)) {
+                localHeader = reader.readLine();
+            }
+            if (localHeader == null) {
+                return false;
+            }
+
+            // Files with no more rows than the window reach back to the header, which is not an observation
+            List<String> localTail = readLastLines(localFile, REVISION_CHECK_ROWS);
+            if (!localTail.isEmpty() && localTail.get(0).equals(localHeader)) {
+                localTail.remove(0);
+            }
+            if (localTail.isEmpty()) {
+                return false;
+            }
+
+            String firstRow = localTail.get(0);
+            String firstDate = firstRow.substring(0, Math.max(firstRow.indexOf(','), 0));
+            try {
+                LocalDate.parse(firstDate);
+            } catch (DateTimeParseException e) {
+                System.err.println("Unrecognised observation in " + localFile.getFileName() + ", refreshing in full.");
+                return false;
+            }
+
+            String deltaUrl = withQueryParameter(csvUrl, "cosd", firstDate);
+            System.out.println("Updating " + localFile.getFileName() + " with observations since " + firstDate);
+
+            List<String> rows = downloadText(deltaUrl).lines()
+                    .filter(line -> !line.isBlank())
+                    .toList();
+
+            // The server's rows from firstDate onward must start with exactly the local tail
+            int overlap = localTail.size();
+            if (rows.size() < overlap + 1
+                    || !rows.get(0).equals(localHeader)
+                    || !rows.subList(1, overlap + 1).equals(localTail)) {
+                System.out.println("History revised for " + localFile.getFileName() + ", refreshing in full.");
+                return false;
+            }
+
+            List<String> newRows = rows.subList(overlap + 1, rows.size());
+            if (newRows.isEmpty()) {
+                System.out.println(localFile.getFileName() + " is already up to date.");
+                return true;
+            }
+
+            StringBuilder appended = new StringBuilder();
+            if (!endsWithNewline(localFile)) {
+                appended.append('\n');
+            }
+            for (String row : newRows) {
+                appended.append(row).append('\n');
+            }
+            Files.writeString(localFile, appended, StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+            System.out.println("Appended " + newRows.size() + " observation(s) to " + localFile.getFileName());
+            return true;
+        }
+
         @Override
         protected boolean isValid(String url) {
             return url != null
-                    && url.startsWith("https://fred.stlouisfed.org/series/");
+                    && url.startsWith(baseUrl + "/series/");
+        }
+    }
+
+    /**
+     * Reads the last non-empty lines of a file from a block at its end, growing the block until it
+     * holds enough lines, so large series histories are not read in full.
+     *
+     * @param file  the file to read
+     * @param count the maximum number of lines to return
+     * @return up to {@code count} non-empty lines, in file order
+     * @throws IOException if the file cannot be read
+     */
+    private static List<String> readLastLines(Path file, int count) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "r")) {
+            long length = raf.length();
+            for (long blockSize = TAIL_BLOCK_SIZE; ; blockSize *= 2) {
+                long start = Math.max(0, length - blockSize);
+                byte[] block = new byte[(int) (length - start)];
+                raf.seek(start);
+                raf.readFully(block);
+
+                List<String> lines = new ArrayList<>();
+                int lineEnd = block.length;
+                for (int i = block.length - 1; i >= -1 && lines.size() < count; i--) {
+                    if (i >= 0 && block[i] != '\n' && block[i] != '\r') {
+                        continue;
+                    }
+                    // Unless the block starts the file, its first line may be cut off
+                    if (i < 0 && start > 0) {
+                        break;
+                    }
+                    if (lineEnd > i + 1) {
+                        lines.add(0, new String(block, i + 1, lineEnd - i - 1, StandardCharsets.UTF_8));
+                    }
+                    lineEnd = i;
+                }
+
+                if (lines.size() == count || start == 0) {
+                    return lines;
+                }
+            }
+        }
+    }
+
+    private static boolean endsWithNewline(Path file) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "r")) {
+            if (raf.length() == 0) {
+                return true;
+            }
+            raf.seek(raf.length() - 1);
+            return raf.read() == '\n';
+        }
+    }
+
+    /**
+     * Returns the URL with the given query parameter set to {@code value}, replacing any existing value.
+     */
+    private static String withQueryParameter(String url, String name, String value) {
+        URI uri = URI.create(url);
+        String encoded = name + "=" + URLEncoder.encode(value, StandardCharsets.UTF_8);
+
+        StringBuilder query = new StringBuilder();
+        if (uri.getRawQuery() != null) {
+            for (String pair : uri.getRawQuery().split("&")) {
+                if (pair.isEmpty() || pair.equals(name) || pair.startsWith(name + "=")) {
+                    continue;
+                }
+                query.append(pair).append('&');
+            }
+        }
+        query.append(encoded);
+
+        String base = url;
+        int cut = base.indexOf('#');
+        if (cut >= 0) {
+            base = base.substring(0, cut);
+        }
+        cut = base.indexOf('?');
+        if (cut >= 0) {
+            base = base.substring(0, cut);
         }
+        return base + "?" + query;
     }
 }